@@ -0,0 +1,90 @@
+package com.sudoku.headless;
+
+import com.sudoku.util.BatchSolver;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Reads puzzles from standard input, one per line as 81 digits with 0 or '.' for empty cells,
+ * and writes each solution on its own line, or "unsolvable" if there is none.
+ */
+public class HeadlessSolver {
+    private static final int BATCH_SIZE = 4096;
+    private static final String UNSOLVABLE = "unsolvable";
+
+    public static void main(String[] args) throws IOException {
+        final BufferedReader reader = new BufferedReader(new InputStreamReader(System.in, StandardCharsets.US_ASCII));
+        final BufferedWriter writer = new BufferedWriter(new OutputStreamWriter(System.out, StandardCharsets.US_ASCII));
+
+        final byte[] puzzles = new byte[BATCH_SIZE * BatchSolver.PUZZLE_SIZE];
+        final byte[] solutions = new byte[puzzles.length];
+        int puzzleNum = 0;
+        int lineNum = 0;
+
+        String line;
+        while ((line = reader.readLine()) != null) {
+            lineNum++;
+            if (line.isBlank()) {
+                continue;
+            }
+            if (!parse(line.strip(), puzzles, puzzleNum * BatchSolver.PUZZLE_SIZE)) {
+                // The puzzles read so far still get their solutions, so that the output lines match the input
+                solveAndWrite(puzzles, solutions, puzzleNum, writer);
+                writer.flush();
+                System.err.println("Invalid puzzle on line " + lineNum);
+                System.exit(1);
+            }
+
+            if (++puzzleNum == BATCH_SIZE) {
+                solveAndWrite(puzzles, solutions, puzzleNum, writer);
+                puzzleNum = 0;
+            }
+        }
+        solveAndWrite(puzzles, solutions, puzzleNum, writer);
+        writer.flush();
+    }
+
+    private static boolean parse(String line, byte[] puzzles, int offset) {
+        if (line.length() != BatchSolver.PUZZLE_SIZE) {
+            return false;
+        }
+
+        for (int i = 0; i < BatchSolver.PUZZLE_SIZE; i++) {
+            final char c = line.charAt(i);
+            if (c == '.') {
+                puzzles[offset + i] = 0;
+            } else if (c >= '0' && c <= '9') {
+                puzzles[offset + i] = (byte) (c - '0');
+            } else {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static void solveAndWrite(byte[] puzzles, byte[] solutions, int puzzleNum, BufferedWriter writer)
+            throws IOException {
+        final int length = puzzleNum * BatchSolver.PUZZLE_SIZE;
+        BatchSolver.solveAll(ByteBuffer.wrap(puzzles, 0, length), ByteBuffer.wrap(solutions));
+
+        final char[] solution = new char[BatchSolver.PUZZLE_SIZE];
+        for (int offset = 0; offset < length; offset += BatchSolver.PUZZLE_SIZE) {
+            // Unsolvable puzzles are written as all zeros, and a solution never contains a 0
+            if (solutions[offset] == 0) {
+                writer.write(UNSOLVABLE);
+            } else {
+                for (int i = 0; i < BatchSolver.PUZZLE_SIZE; i++) {
+                    solution[i] = (char) ('0' + solutions[offset + i]);
+                }
+                writer.write(solution);
+            }
+            writer.newLine();
+        }
+    }
+}
@@ -0,0 +1,95 @@
+package com.sudoku.util;
+
+import java.nio.ByteBuffer;
+import java.util.stream.IntStream;
+
+/**
+ * Solves many puzzles packed one after the other into a single buffer, {@link #PUZZLE_SIZE} bytes per puzzle
+ * in row-major order with 0 for empty cells. The buffers may be heap arrays or direct/mapped {@link ByteBuffer}s,
+ * in which case only the bytes between their position and limit are used.
+ * <p>
+ * The puzzles are split into chunks which are processed in parallel, and no objects are allocated per puzzle.
+ */
+public final class BatchSolver {
+    public static final int PUZZLE_SIZE = BitBoard.CELLS;
+    private static final int CHUNK_SIZE = 256;
+
+    private BatchSolver() {
+    }
+
+    public static int solveAll(byte[] puzzles, byte[] solutions) {
+        return solveAll(ByteBuffer.wrap(puzzles), ByteBuffer.wrap(solutions));
+    }
+
+    /**
+     * Writes the solution of every puzzle in {@code puzzles} at the same offset in {@code solutions}.
+     * Puzzles with no solution are written as all zeros.
+     *
+     * @return the number of puzzles that were solved
+     */
+    public static int solveAll(ByteBuffer puzzleBuffer, ByteBuffer solutionBuffer) {
+        final ByteBuffer puzzles = puzzleBuffer.slice();
+        final ByteBuffer solutions = solutionBuffer.slice();
+        final int puzzleNum = puzzleCount(puzzles);
+        if (solutions.limit() < puzzleNum * PUZZLE_SIZE) {
+            throw new IllegalArgumentException("The solutions buffer is smaller than the puzzles buffer");
+        }
+
+        return IntStream.range(0, chunkCount(puzzleNum)).parallel().map(chunk -> {
+            final BitBoard board = new BitBoard();
+            final byte[] empty = new byte[PUZZLE_SIZE];
+
+            int solved = 0;
+            final int end = Math.min(puzzleNum, (chunk + 1) * CHUNK_SIZE);
+            for (int i = chunk * CHUNK_SIZE; i < end; i++) {
+                final int offset = i * PUZZLE_SIZE;
+                if (board.load(puzzles, offset) && board.countSolutions(1) == 1) {
+                    board.store(solutions, offset);
+                    solved++;
+                } else {
+                    solutions.put(offset, empty);
+                }
+            }
+            return solved;
+        }).sum();
+    }
+
+    public static void countAll(byte[] puzzles, int[] counts, int limit) {
+        countAll(ByteBuffer.wrap(puzzles), counts, limit);
+    }
+
+    /**
+     * Writes the number of solutions of every puzzle in {@code puzzles} to the matching index of {@code counts}.
+     * Counting stops at {@code limit}, so a limit of 2 is enough to tell unique puzzles apart.
+     */
+    public static void countAll(ByteBuffer puzzleBuffer, int[] counts, int limit) {
+        final ByteBuffer puzzles = puzzleBuffer.slice();
+        final int puzzleNum = puzzleCount(puzzles);
+        if (counts.length < puzzleNum) {
+            throw new IllegalArgumentException("The counts array is smaller than the number of puzzles");
+        }
+        if (limit < 1) {
+            throw new IllegalArgumentException("The limit must be at least 1");
+        }
+
+        IntStream.range(0, chunkCount(puzzleNum)).parallel().forEach(chunk -> {
+            final BitBoard board = new BitBoard();
+
+            final int end = Math.min(puzzleNum, (chunk + 1) * CHUNK_SIZE);
+            for (int i = chunk * CHUNK_SIZE; i < end; i++) {
+                counts[i] = board.load(puzzles, i * PUZZLE_SIZE) ? (int) board.countSolutions(limit) : 0;
+            }
+        });
+    }
+
+    private static int puzzleCount(ByteBuffer puzzles) {
+        if (puzzles.limit() % PUZZLE_SIZE != 0) {
+            throw new IllegalArgumentException("The puzzles buffer size must be a multiple of " + PUZZLE_SIZE);
+        }
+        return puzzles.limit() / PUZZLE_SIZE;
+    }
+
+    private static int chunkCount(int puzzleNum) {
+        return (puzzleNum + CHUNK_SIZE - 1) / CHUNK_SIZE;
+    }
+}
@@ -0,0 +1,399 @@
+package com.sudoku.util;
+
+import java.nio.ByteBuffer;
+
+import static com.sudoku.util.SudokuGame.GRID_BOUNDARY;
+
+/**
+ * A flat, allocation-free sudoku board which keeps the digits used by every row, column and box as bitmasks.
+ * Instances are meant to be reused for many puzzles, one instance per thread.
+ * <p>
+ * By default the search branches on the cell with the fewest candidates, tries digits in ascending order and fills
+ * in naked and hidden singles at every step, but each of these can be changed.
+ */
+final class BitBoard {
+    static final int CELLS = GRID_BOUNDARY * GRID_BOUNDARY;
+    static final int ALL_CANDIDATES = (1 << GRID_BOUNDARY) - 1;
+
+    // The 9 cells of every row, column and box, in that order
+    private static final int[][] UNITS = new int[3 * GRID_BOUNDARY][GRID_BOUNDARY];
+    // How many guesses are made between checks for interruption
+    private static final int INTERRUPT_CHECK_MASK = 1023;
+
+    static {
+        for (int unit = 0; unit < GRID_BOUNDARY; unit++) {
+            for (int k = 0; k < GRID_BOUNDARY; k++) {
+                UNITS[unit][k] = unit * GRID_BOUNDARY + k;
+                UNITS[GRID_BOUNDARY + unit][k] = k * GRID_BOUNDARY + unit;
+                UNITS[2 * GRID_BOUNDARY + unit][k] = (unit / 3 * 3 + k / 3) * GRID_BOUNDARY + unit % 3 * 3 + k % 3;
+            }
+        }
+    }
+
+    final byte[] cells = new byte[CELLS];
+    private final int[] rows = new int[GRID_BOUNDARY];
+    private final int[] cols = new int[GRID_BOUNDARY];
+    private final int[] boxes = new int[GRID_BOUNDARY];
+    // Cells filled in by propagation, so that they can be cleared again when backtracking
+    private final int[] trail = new int[CELLS];
+    private int trailSize;
+
+    private final byte[] digits = new byte[GRID_BOUNDARY];
+    private boolean rowMajor;
+    private boolean propagating = true;
+
+    private long solutionNum;
+    private long limit;
+    private long nodes;
+    private long nodeLimit;
+    private boolean stopped;
+    private int rootCell;
+    private int deadCell;
+    private int deadUnit;
+
+    BitBoard() {
+        for (int i = 0; i < GRID_BOUNDARY; i++) {
+            digits[i] = (byte) (i + 1);
+        }
+    }
+
+    /**
+     * Loads the puzzle stored at {@code offset} in {@code source}.
+     *
+     * @return false if the puzzle contains an invalid value or breaks the sudoku rules
+     */
+    boolean load(ByteBuffer source, int offset) {
+        source.get(offset, cells);
+        return fillMasks();
+    }
+
+    boolean load(byte[] source) {
+        System.arraycopy(source, 0, cells, 0, CELLS);
+        return fillMasks();
+    }
+
+    boolean load(byte[][] grid) {
+        for (int row = 0; row < GRID_BOUNDARY; row++) {
+            System.arraycopy(grid[row], 0, cells, row * GRID_BOUNDARY, GRID_BOUNDARY);
+        }
+        return fillMasks();
+    }
+
+    void store(ByteBuffer target, int offset) {
+        target.put(offset, cells);
+    }
+
+    void store(byte[][] grid) {
+        for (int row = 0; row < GRID_BOUNDARY; row++) {
+            System.arraycopy(cells, row * GRID_BOUNDARY, grid[row], 0, GRID_BOUNDARY);
+        }
+    }
+
+    /**
+     * Sets the order in which digits are tried when guessing.
+     */
+    void setValueOrder(byte[] order) {
+        System.arraycopy(order, 0, digits, 0, GRID_BOUNDARY);
+    }
+
+    /**
+     * Makes the search branch on the first empty cell in row-major order, instead of the one with the fewest
+     * candidates.
+     */
+    void setRowMajor(boolean rowMajor) {
+        this.rowMajor = rowMajor;
+    }
+
+    void setPropagating(boolean propagating) {
+        this.propagating = propagating;
+    }
+
+    // Clashing digits are still added to the masks, so that the candidates of the other cells can be read
+    private boolean fillMasks() {
+        trailSize = 0;
+        for (int i = 0; i < GRID_BOUNDARY; i++) {
+            rows[i] = 0;
+            cols[i] = 0;
+            boxes[i] = 0;
+        }
+
+        boolean valid = true;
+        for (int i = 0; i < CELLS; i++) {
+            final byte value = cells[i];
+            if (value == 0) {
+                continue;
+            }
+            if (value < 0 || value > GRID_BOUNDARY) {
+                return false;
+            }
+
+            final int bit = 1 << (value - 1);
+            if ((used(i) & bit) != 0) {
+                valid = false;
+            }
+            place(i, bit);
+        }
+        return valid;
+    }
+
+    long countSolutions(long limit) {
+        return countSolutions(limit, Long.MAX_VALUE);
+    }
+
+    /**
+     * Searches for solutions until {@code limit} of them have been found, the search space is exhausted, or
+     * {@code nodeLimit} guesses have been made. The search is also stopped if the thread is interrupted.
+     * If the limit is reached, the last solution found is left in {@link #cells}; otherwise the board is left as it
+     * was loaded.
+     *
+     * @return the number of solutions found, never more than {@code limit}
+     * @see #isStopped()
+     */
+    long countSolutions(long limit, long nodeLimit) {
+        this.limit = limit;
+        this.nodeLimit = nodeLimit;
+        solutionNum = 0;
+        nodes = 0;
+        stopped = false;
+        rootCell = -1;
+        search();
+        return solutionNum;
+    }
+
+    /**
+     * @return whether the last search was cut short by its guess limit or an interruption
+     */
+    boolean isStopped() {
+        return stopped;
+    }
+
+    /**
+     * @return the first cell the last search guessed on, or -1 if it never guessed. If that search found no
+     * solution and wasn't stopped, none of the digits this cell could hold lead to one
+     */
+    int rootCell() {
+        return rootCell;
+    }
+
+    /**
+     * @return the cell where the last failed {@link #propagate()} found that no digit fits, or -1
+     */
+    int deadCell() {
+        return deadCell;
+    }
+
+    /**
+     * @return the unit where the last failed {@link #propagate()} found a digit with nowhere to go, or -1
+     * @see #unitCell(int, int)
+     */
+    int deadUnit() {
+        return deadUnit;
+    }
+
+    /**
+     * @return the {@code k}th cell of a unit, where units 0-8 are the rows, 9-17 the columns and 18-26 the boxes
+     */
+    static int unitCell(int unit, int k) {
+        return UNITS[unit][k];
+    }
+
+    int candidates(int cell) {
+        return ~used(cell) & ALL_CANDIDATES;
+    }
+
+    void place(int cell, int bit) {
+        cells[cell] = (byte) (Integer.numberOfTrailingZeros(bit) + 1);
+        rows[cell / GRID_BOUNDARY] |= bit;
+        cols[cell % GRID_BOUNDARY] |= bit;
+        boxes[box(cell)] |= bit;
+    }
+
+    void remove(int cell, int bit) {
+        cells[cell] = 0;
+        rows[cell / GRID_BOUNDARY] &= ~bit;
+        cols[cell % GRID_BOUNDARY] &= ~bit;
+        boxes[box(cell)] &= ~bit;
+    }
+
+    private int used(int cell) {
+        return rows[cell / GRID_BOUNDARY] | cols[cell % GRID_BOUNDARY] | boxes[box(cell)];
+    }
+
+    static int box(int cell) {
+        return (cell / GRID_BOUNDARY) / 3 * 3 + (cell % GRID_BOUNDARY) / 3;
+    }
+
+    /**
+     * Fills in naked singles (cells with one candidate left) and hidden singles (digits which only fit in one cell
+     * of a row, column or box) until there are none left. The board must not contain clashing digits.
+     *
+     * @return false as soon as a contradiction is found, leaving the board as it was at that point
+     * @see #deadCell()
+     * @see #deadUnit()
+     */
+    boolean propagate() {
+        deadCell = -1;
+        deadUnit = -1;
+
+        boolean changed = true;
+        while (changed) {
+            changed = false;
+
+            for (int i = 0; i < CELLS; i++) {
+                if (cells[i] != 0) {
+                    continue;
+                }
+
+                final int candidates = candidates(i);
+                if (candidates == 0) {
+                    deadCell = i;
+                    return false;
+                }
+                if (Integer.bitCount(candidates) == 1) {
+                    assign(i, candidates);
+                    changed = true;
+                }
+            }
+            if (changed) {
+                continue;
+            }
+
+            for (int unitIndex = 0; unitIndex < UNITS.length; unitIndex++) {
+                final int[] unit = UNITS[unitIndex];
+                int seenOnce = 0;
+                int seenTwice = 0;
+                int placed = 0;
+                for (int cell : unit) {
+                    if (cells[cell] != 0) {
+                        placed |= 1 << (cells[cell] - 1);
+                    } else {
+                        final int candidates = candidates(cell);
+                        seenTwice |= seenOnce & candidates;
+                        seenOnce |= candidates;
+                    }
+                }
+
+                // A digit with nowhere left to go in this unit
+                if ((seenOnce | placed) != ALL_CANDIDATES) {
+                    deadUnit = unitIndex;
+                    return false;
+                }
+
+                final int hidden = seenOnce & ~seenTwice;
+                if (hidden == 0) {
+                    continue;
+                }
+                for (int cell : unit) {
+                    if (cells[cell] != 0) {
+                        continue;
+                    }
+
+                    final int bit = candidates(cell) & hidden;
+                    // The only place left for two different digits
+                    if (Integer.bitCount(bit) > 1) {
+                        deadCell = cell;
+                        return false;
+                    }
+                    if (bit != 0) {
+                        assign(cell, bit);
+                        changed = true;
+                    }
+                }
+            }
+        }
+
+        return true;
+    }
+
+    private void assign(int cell, int bit) {
+        place(cell, bit);
+        trail[trailSize++] = cell;
+    }
+
+    private void undo(int mark) {
+        while (trailSize > mark) {
+            final int cell = trail[--trailSize];
+            remove(cell, 1 << (cells[cell] - 1));
+        }
+    }
+
+    // Return value is only used to exit the recursion
+    private boolean search() {
+        final int mark = trailSize;
+        if (propagating && !propagate()) {
+            undo(mark);
+            return false;
+        }
+
+        final int cell = rowMajor ? firstEmpty() : fewestCandidates();
+        if (rootCell < 0) {
+            rootCell = cell;
+        }
+
+        // Base case: If all positions are filled up, the grid must have been solved
+        if (cell < 0) {
+            if (++solutionNum >= limit) {
+                return true;
+            }
+            undo(mark);
+            return false;
+        }
+
+        final int candidates = candidates(cell);
+        for (byte digit : digits) {
+            final int bit = 1 << (digit - 1);
+            if ((candidates & bit) == 0) {
+                continue;
+            }
+
+            if (++nodes >= nodeLimit
+                    || (nodes & INTERRUPT_CHECK_MASK) == 0 && Thread.currentThread().isInterrupted()) {
+                stopped = true;
+                break;
+            }
+
+            place(cell, bit);
+            if (search()) {
+                return true;
+            }
+
+            // If it wasn't solved it backtracks to here
+            remove(cell, bit);
+            if (stopped) {
+                break;
+            }
+        }
+
+        undo(mark);
+        return false;
+    }
+
+    private int firstEmpty() {
+        for (int i = 0; i < CELLS; i++) {
+            if (cells[i] == 0) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private int fewestCandidates() {
+        int bestCell = -1;
+        int bestCount = GRID_BOUNDARY + 1;
+        for (int i = 0; i < CELLS; i++) {
+            if (cells[i] != 0) {
+                continue;
+            }
+
+            final int count = Integer.bitCount(candidates(i));
+            if (count < bestCount) {
+                bestCell = i;
+                bestCount = count;
+                if (count <= 1) {
+                    break;
+                }
+            }
+        }
+        return bestCell;
+    }
+}
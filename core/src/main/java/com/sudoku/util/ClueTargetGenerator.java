@@ -0,0 +1,180 @@
+package com.sudoku.util;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import static com.sudoku.util.SudokuGame.GRID_BOUNDARY;
+
+/**
+ * Generates puzzles with a unique solution and at most a given number of clues.
+ * <p>
+ * Several restarts run in parallel, each with its own solution grid and removal order. Once a restart gets stuck
+ * above the target it swaps clues around to escape the local minimum before starting again.
+ * The first restart to reach the target wins and the others are cancelled.
+ */
+final class ClueTargetGenerator {
+    // 17 is the lowest number of clues a sudoku with a unique solution can have
+    static final int MIN_CLUES = 17;
+    private static final int SWAP_MOVES = 20;
+
+    private final int targetClues;
+
+    ClueTargetGenerator(int targetClues) {
+        if (targetClues < MIN_CLUES || targetClues > BitBoard.CELLS) {
+            throw new IllegalArgumentException("The target must be between " + MIN_CLUES + " and " + BitBoard.CELLS);
+        }
+        this.targetClues = targetClues;
+    }
+
+    /**
+     * @return the puzzle as {@link BitBoard#CELLS} bytes in row-major order,
+     * or null if no restart reached the target in time
+     */
+    byte[] generate(long timeoutMillis) throws InterruptedException {
+        final int workers = Runtime.getRuntime().availableProcessors();
+        final List<Callable<byte[]>> restarts = new ArrayList<>(workers);
+        for (int i = 0; i < workers; i++) {
+            final long seed = ThreadLocalRandom.current().nextLong();
+            restarts.add(() -> search(new Random(seed)));
+        }
+
+        // Daemon threads, so that restarts still finishing a uniqueness check after a timeout don't keep the JVM alive
+        final ExecutorService executor = Executors.newFixedThreadPool(workers, runnable -> {
+            final Thread thread = new Thread(runnable, "clue-target-generator");
+            thread.setDaemon(true);
+            return thread;
+        });
+        try {
+            return executor.invokeAny(restarts, timeoutMillis, TimeUnit.MILLISECONDS);
+        } catch (ExecutionException | TimeoutException e) {
+            return null;
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private byte[] search(Random random) throws InterruptedException {
+        final BitBoard board = new BitBoard();
+        final byte[] solution = new byte[BitBoard.CELLS];
+        final byte[] puzzle = new byte[BitBoard.CELLS];
+        final int[] order = new int[BitBoard.CELLS];
+        for (int i = 0; i < BitBoard.CELLS; i++) {
+            order[i] = i;
+        }
+
+        while (true) {
+            fillRandomSolution(board, random, solution);
+            System.arraycopy(solution, 0, puzzle, 0, BitBoard.CELLS);
+
+            int clues = removeClues(board, random, puzzle, order, BitBoard.CELLS);
+            for (int move = 0; move < SWAP_MOVES && clues > targetClues; move++) {
+                if (swapClue(board, random, solution, puzzle)) {
+                    clues = removeClues(board, random, puzzle, order, clues);
+                }
+            }
+
+            if (clues <= targetClues) {
+                return puzzle;
+            }
+        }
+    }
+
+    // Removes clues in a random order for as long as the solution stays unique, stopping at the target
+    private int removeClues(BitBoard board, Random random, byte[] puzzle, int[] order, int clues)
+            throws InterruptedException {
+        Shuffle.shuffle(order, random);
+        for (int cell : order) {
+            if (Thread.interrupted()) {
+                throw new InterruptedException();
+            }
+            if (clues <= targetClues) {
+                break;
+            }
+
+            final byte value = puzzle[cell];
+            if (value == 0) {
+                continue;
+            }
+
+            puzzle[cell] = 0;
+            if (isUnique(board, puzzle)) {
+                clues--;
+            } else {
+                puzzle[cell] = value;
+            }
+        }
+        return clues;
+    }
+
+    // Replaces a random clue with a random empty cell, if the solution stays unique
+    private boolean swapClue(BitBoard board, Random random, byte[] solution, byte[] puzzle)
+            throws InterruptedException {
+        int clue;
+        do {
+            clue = random.nextInt(BitBoard.CELLS);
+        } while (puzzle[clue] == 0);
+
+        int empty;
+        do {
+            empty = random.nextInt(BitBoard.CELLS);
+        } while (puzzle[empty] != 0);
+
+        puzzle[clue] = 0;
+        puzzle[empty] = solution[empty];
+        if (isUnique(board, puzzle)) {
+            return true;
+        }
+
+        puzzle[empty] = 0;
+        puzzle[clue] = solution[clue];
+        return false;
+    }
+
+    private static boolean isUnique(BitBoard board, byte[] puzzle) throws InterruptedException {
+        if (!board.load(puzzle)) {
+            return false;
+        }
+
+        final long solutionNum = board.countSolutions(2);
+        // An interrupted search may not have found the second solution yet
+        if (board.isStopped()) {
+            throw new InterruptedException();
+        }
+        return solutionNum == 1;
+    }
+
+    private static void fillRandomSolution(BitBoard board, Random random, byte[] solution)
+            throws InterruptedException {
+        // The boxes on the diagonal don't share any row or column, so they can be filled in independently
+        final byte[] digits = new byte[GRID_BOUNDARY];
+        for (int i = 0; i < GRID_BOUNDARY; i++) {
+            digits[i] = (byte) (i + 1);
+        }
+        Arrays.fill(solution, (byte) 0);
+
+        for (int box = 0; box < GRID_BOUNDARY; box += 4) {
+            Shuffle.shuffle(digits, random);
+            for (int i = 0; i < GRID_BOUNDARY; i++) {
+                final int row = box / 3 * 3 + i / 3;
+                final int col = box % 3 * 3 + i % 3;
+                solution[row * GRID_BOUNDARY + col] = digits[i];
+            }
+        }
+
+        board.load(solution);
+        board.countSolutions(1);
+        if (board.isStopped()) {
+            throw new InterruptedException();
+        }
+        System.arraycopy(board.cells, 0, solution, 0, BitBoard.CELLS);
+    }
+}
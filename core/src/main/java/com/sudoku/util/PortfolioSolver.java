@@ -0,0 +1,294 @@
+package com.sudoku.util;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+import static com.sudoku.util.SudokuGame.GRID_BOUNDARY;
+
+/**
+ * Races several differently configured searches on the same puzzle and keeps the first answer.
+ * <p>
+ * When there are more configurations than threads, the best performers are raced, plus one slot which rotates through
+ * the rest so that they still get a chance to prove themselves. With several threads the best performers are the ones
+ * which win the largest share of the races they enter. With a single thread nothing is raced, so the best performer
+ * is instead the one with the lowest average solve time, and the rotating slot is only used for one solve in
+ * {@value #EXPLORATION_INTERVAL}.
+ */
+public final class PortfolioSolver implements AutoCloseable {
+    public enum CellOrder {
+        ROW_MAJOR,
+        FEWEST_CANDIDATES,
+    }
+
+    public enum ValueOrder {
+        ASCENDING,
+        DESCENDING,
+        RANDOM,
+    }
+
+    /**
+     * @param propagate    whether naked and hidden singles are filled in before every guess
+     * @param restartNodes the number of guesses after which the search starts over with a new random value order,
+     *                     doubled on every restart, or 0 to never restart. Only a {@link ValueOrder#RANDOM} search
+     *                     can restart, since any other one would repeat the same search
+     */
+    public record Config(CellOrder cellOrder, ValueOrder valueOrder, boolean propagate, long restartNodes) {
+        public Config {
+            if (restartNodes < 0) {
+                throw new IllegalArgumentException("The number of guesses before a restart can't be negative");
+            }
+            if (restartNodes > 0 && valueOrder != ValueOrder.RANDOM) {
+                throw new IllegalArgumentException("Only a search with a random value order can restart");
+            }
+        }
+    }
+
+    public record Result(boolean solved, Config winner) {
+    }
+
+    public static final List<Config> DEFAULT_CONFIGS = List.of(
+            new Config(CellOrder.FEWEST_CANDIDATES, ValueOrder.ASCENDING, true, 0),
+            new Config(CellOrder.FEWEST_CANDIDATES, ValueOrder.RANDOM, true, 1_000),
+            new Config(CellOrder.FEWEST_CANDIDATES, ValueOrder.DESCENDING, true, 0),
+            new Config(CellOrder.FEWEST_CANDIDATES, ValueOrder.RANDOM, false, 100),
+            new Config(CellOrder.FEWEST_CANDIDATES, ValueOrder.ASCENDING, false, 0),
+            new Config(CellOrder.ROW_MAJOR, ValueOrder.ASCENDING, false, 0)
+    );
+
+    // With a single thread, one solve in this many tries a configuration other than the best one
+    private static final int EXPLORATION_INTERVAL = 16;
+
+    private final List<Config> configs;
+    private final int width;
+    private final AtomicLongArray wins;
+    private final AtomicLongArray races;
+    // Exponentially weighted, so that early runs slowed down by a cold JIT are soon forgotten; -1 until the first run
+    private final AtomicLongArray soloNanos;
+    private final AtomicInteger explorationSlot = new AtomicInteger();
+    private final AtomicLong solveNum = new AtomicLong();
+    private final ExecutorService executor;
+
+    /**
+     * @param width the number of searches raced on every puzzle
+     */
+    public PortfolioSolver(List<Config> configs, int width) {
+        if (configs.isEmpty() || width < 1) {
+            throw new IllegalArgumentException("At least one configuration and one thread are needed");
+        }
+
+        this.configs = List.copyOf(configs);
+        this.width = Math.min(width, configs.size());
+        wins = new AtomicLongArray(configs.size());
+        races = new AtomicLongArray(configs.size());
+        soloNanos = new AtomicLongArray(configs.size());
+        for (int i = 0; i < configs.size(); i++) {
+            soloNanos.set(i, -1);
+        }
+        executor = Executors.newFixedThreadPool(this.width, runnable -> {
+            final Thread thread = new Thread(runnable, "portfolio-solver");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    public PortfolioSolver() {
+        this(DEFAULT_CONFIGS, Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * Solves {@code grid} in place, if it has a solution.
+     *
+     * @return whether the grid was solved, and the configuration which got there first
+     */
+    public Result solve(byte[][] grid) throws InterruptedException {
+        try {
+            return solve(grid, Long.MAX_VALUE);
+        } catch (TimeoutException e) {
+            throw new IllegalStateException("A solve without a time limit timed out", e);
+        }
+    }
+
+    /**
+     * Solves {@code grid} in place, if it has a solution, giving up after {@code timeoutMillis}.
+     *
+     * @return whether the grid was solved, and the configuration which got there first
+     * @throws TimeoutException if no search finished in time, in which case the grid is left unchanged
+     */
+    public Result solve(byte[][] grid, long timeoutMillis) throws InterruptedException, TimeoutException {
+        // The searches get their own copy, so that losers still running can't see the winner writing to the grid
+        final byte[] puzzle = new byte[BitBoard.CELLS];
+        for (int row = 0; row < GRID_BOUNDARY; row++) {
+            System.arraycopy(grid[row], 0, puzzle, row * GRID_BOUNDARY, GRID_BOUNDARY);
+        }
+
+        final long seed = ThreadLocalRandom.current().nextLong();
+        final List<Search> searches = new ArrayList<>(width);
+        for (int index : pickConfigs()) {
+            searches.add(new Search(index, puzzle, seed + index));
+        }
+
+        final long start = System.nanoTime();
+        final Search winner;
+        try {
+            winner = executor.invokeAny(searches, timeoutMillis, TimeUnit.MILLISECONDS);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Every search failed", e.getCause());
+        } catch (TimeoutException e) {
+            // The time limit is a lower bound on how long a lone search would have taken, so it still counts
+            if (searches.size() == 1) {
+                recordSoloRun(searches.get(0).configIndex, System.nanoTime() - start);
+            }
+            throw e;
+        }
+
+        if (searches.size() == 1) {
+            recordSoloRun(winner.configIndex, System.nanoTime() - start);
+        } else {
+            // A win only means something if there was someone to beat
+            for (Search search : searches) {
+                races.incrementAndGet(search.configIndex);
+            }
+            wins.incrementAndGet(winner.configIndex);
+        }
+
+        if (winner.solved) {
+            winner.board.store(grid);
+        }
+        return new Result(winner.solved, winner.config);
+    }
+
+    private void recordSoloRun(int configIndex, long nanos) {
+        soloNanos.accumulateAndGet(configIndex, nanos,
+                (average, latest) -> average < 0 ? latest : (average + latest) / 2);
+    }
+
+    /**
+     * @return how many races against at least one other search each configuration won,
+     * in the order the configurations were given in
+     */
+    public List<Map.Entry<Config, Long>> getWins() {
+        final List<Map.Entry<Config, Long>> result = new ArrayList<>(configs.size());
+        for (int i = 0; i < configs.size(); i++) {
+            result.add(Map.entry(configs.get(i), wins.get(i)));
+        }
+        return result;
+    }
+
+    /**
+     * @return the average time in nanoseconds each configuration took when it ran on its own, where every run counts
+     * twice as much as the one before it, or NaN if it never has, in the order the configurations were given in
+     */
+    public List<Map.Entry<Config, Double>> getAverageSoloNanos() {
+        final List<Map.Entry<Config, Double>> result = new ArrayList<>(configs.size());
+        for (int i = 0; i < configs.size(); i++) {
+            result.add(Map.entry(configs.get(i), averageSoloNanos(i)));
+        }
+        return result;
+    }
+
+    private double averageSoloNanos(int configIndex) {
+        final long average = soloNanos.get(configIndex);
+        return average < 0 ? Double.NaN : average;
+    }
+
+    // Higher is better, and configurations with no record yet come last
+    private double score(int configIndex) {
+        if (width == 1) {
+            final double average = averageSoloNanos(configIndex);
+            return Double.isNaN(average) ? Double.NEGATIVE_INFINITY : -average;
+        }
+
+        final long entered = races.get(configIndex);
+        return entered == 0 ? Double.NEGATIVE_INFINITY : (double) wins.get(configIndex) / entered;
+    }
+
+    private List<Integer> pickConfigs() {
+        final List<Integer> ranked = new ArrayList<>(configs.size());
+        for (int i = 0; i < configs.size(); i++) {
+            ranked.add(i);
+        }
+        if (width == configs.size()) {
+            return ranked;
+        }
+
+        // A stable sort, so ties keep the order the configurations were given in
+        ranked.sort(Comparator.comparingDouble(i -> -score(i)));
+
+        // With a single thread the best configuration is exploited, and the others are only tried now and then
+        if (width == 1 && solveNum.incrementAndGet() % EXPLORATION_INTERVAL != 0) {
+            return ranked.subList(0, 1);
+        }
+
+        final int exploited = Math.max(width - 1, 1);
+        final List<Integer> picked = new ArrayList<>(ranked.subList(0, width - 1));
+        final List<Integer> rest = ranked.subList(exploited, ranked.size());
+        picked.add(rest.get(Math.floorMod(explorationSlot.getAndIncrement(), rest.size())));
+        return picked;
+    }
+
+    @Override
+    public void close() {
+        executor.shutdownNow();
+    }
+
+    private final class Search implements Callable<Search> {
+        private final BitBoard board = new BitBoard();
+        private final byte[] digits = new byte[GRID_BOUNDARY];
+        private final int configIndex;
+        private final Config config;
+        private final byte[] puzzle;
+        private final Random random;
+        private boolean solved;
+
+        private Search(int configIndex, byte[] puzzle, long seed) {
+            this.configIndex = configIndex;
+            this.config = configs.get(configIndex);
+            this.puzzle = puzzle;
+            this.random = new Random(seed);
+
+            for (int i = 0; i < GRID_BOUNDARY; i++) {
+                digits[i] = (byte) (config.valueOrder() == ValueOrder.DESCENDING ? GRID_BOUNDARY - i : i + 1);
+            }
+            board.setRowMajor(config.cellOrder() == CellOrder.ROW_MAJOR);
+            board.setPropagating(config.propagate());
+        }
+
+        @Override
+        public Search call() throws InterruptedException {
+            if (!board.load(puzzle)) {
+                return this;
+            }
+
+            long nodeLimit = config.restartNodes() > 0 ? config.restartNodes() : Long.MAX_VALUE;
+            while (true) {
+                if (config.valueOrder() == ValueOrder.RANDOM) {
+                    Shuffle.shuffle(digits, random);
+                }
+                board.setValueOrder(digits);
+
+                solved = board.countSolutions(1, nodeLimit) == 1;
+                if (Thread.interrupted()) {
+                    throw new InterruptedException();
+                }
+                if (!board.isStopped()) {
+                    return this;
+                }
+
+                nodeLimit *= 2;
+            }
+        }
+    }
+}
@@ -0,0 +1,26 @@
+package com.sudoku.util;
+
+import java.util.Random;
+
+final class Shuffle {
+    private Shuffle() {
+    }
+
+    static void shuffle(int[] array, Random random) {
+        for (int i = array.length - 1; i > 0; i--) {
+            final int j = random.nextInt(i + 1);
+            final int temp = array[i];
+            array[i] = array[j];
+            array[j] = temp;
+        }
+    }
+
+    static void shuffle(byte[] array, Random random) {
+        for (int i = array.length - 1; i > 0; i--) {
+            final int j = random.nextInt(i + 1);
+            final byte temp = array[i];
+            array[i] = array[j];
+            array[j] = temp;
+        }
+    }
+}
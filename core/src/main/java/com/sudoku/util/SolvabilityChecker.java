@@ -0,0 +1,195 @@
+package com.sudoku.util;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static com.sudoku.util.SudokuGame.GRID_BOUNDARY;
+
+/**
+ * Tracks whether a board that is being edited can still be completed, without needing a stored solution.
+ * <p>
+ * After every edit the candidates of each cell are propagated with naked and hidden singles, which finds most
+ * dead ends straight away. If that doesn't settle it, the last solution found is reused while it still agrees
+ * with the board, and only otherwise is a new one searched for. That search is capped, so that an edit never
+ * stalls the caller; if the cap is hit the answer is {@link Solvability#UNKNOWN}.
+ */
+public final class SolvabilityChecker {
+    public enum Solvability {
+        SOLVABLE,
+        UNSOLVABLE,
+        UNKNOWN,
+    }
+
+    /**
+     * @param deadCells the cells which are left with no valid digit: cells with no candidates, cells whose digit
+     *                  clashes with another cell, the empty cells of a row, column or box which has no room left
+     *                  for one of its digits, or a cell where every candidate leads to a dead end.
+     *                  Never empty when the board is {@link Solvability#UNSOLVABLE}
+     */
+    public record Status(Solvability solvability, List<Tuple<Byte>> deadCells) {
+    }
+
+    // The number of guesses after which the search gives up. Once warmed up a guess costs about 1.5 microseconds,
+    // so a search that hits the limit takes about half a millisecond; most edits never need to search at all
+    private static final long SEARCH_NODE_LIMIT = 300;
+
+    private final byte[] cells = new byte[BitBoard.CELLS];
+    private final int[] candidates = new int[BitBoard.CELLS];
+    private final BitBoard board = new BitBoard();
+    private final byte[] lastSolution = new byte[BitBoard.CELLS];
+    private boolean hasLastSolution;
+    private Status status;
+
+    public SolvabilityChecker(byte[][] grid) {
+        for (int row = 0; row < GRID_BOUNDARY; row++) {
+            for (int col = 0; col < GRID_BOUNDARY; col++) {
+                checkValue(grid[row][col]);
+            }
+            System.arraycopy(grid[row], 0, cells, row * GRID_BOUNDARY, GRID_BOUNDARY);
+        }
+        status = check();
+    }
+
+    /**
+     * Puts {@code value} in the given cell, where 0 clears it, and checks the board again.
+     */
+    public Status set(byte row, byte col, byte value) {
+        checkPosition(row, col);
+        checkValue(value);
+
+        cells[row * GRID_BOUNDARY + col] = value;
+        status = check();
+        return status;
+    }
+
+    public Status getStatus() {
+        return status;
+    }
+
+    /**
+     * If the board has clashing digits, propagation is skipped and only the digits already on the board are
+     * taken into account.
+     *
+     * @return the digits the cell can still hold after propagation, as a bitmask where bit 0 stands for 1
+     */
+    public int getCandidates(byte row, byte col) {
+        checkPosition(row, col);
+        return candidates[row * GRID_BOUNDARY + col];
+    }
+
+    private Status check() {
+        final List<Tuple<Byte>> deadCells = new ArrayList<>();
+        if (!board.load(cells)) {
+            findConflicts(deadCells);
+            fillCandidates(deadCells);
+            return new Status(Solvability.UNSOLVABLE, deadCells);
+        }
+
+        final boolean consistent = board.propagate();
+        fillCandidates(deadCells);
+        if (!consistent) {
+            if (deadCells.isEmpty()) {
+                addContradiction(deadCells);
+            }
+            return new Status(Solvability.UNSOLVABLE, deadCells);
+        }
+
+        if (hasLastSolution && agreesWithLastSolution()) {
+            return new Status(Solvability.SOLVABLE, deadCells);
+        }
+
+        // The board already holds the propagated values, which saves the search from redoing those deductions
+        final long solutionNum = board.countSolutions(1, SEARCH_NODE_LIMIT);
+        if (board.isStopped()) {
+            hasLastSolution = false;
+            return new Status(Solvability.UNKNOWN, deadCells);
+        }
+
+        hasLastSolution = solutionNum == 1;
+        if (hasLastSolution) {
+            System.arraycopy(board.cells, 0, lastSolution, 0, BitBoard.CELLS);
+            return new Status(Solvability.SOLVABLE, deadCells);
+        }
+
+        // Every digit the first guessed cell could hold led to a dead end
+        deadCells.add(toTuple(board.rootCell()));
+        return new Status(Solvability.UNSOLVABLE, deadCells);
+    }
+
+    // Points at where propagation found its contradiction, when it wasn't an empty cell without candidates
+    private void addContradiction(List<Tuple<Byte>> deadCells) {
+        if (board.deadCell() >= 0) {
+            deadCells.add(toTuple(board.deadCell()));
+            return;
+        }
+
+        for (int k = 0; k < GRID_BOUNDARY; k++) {
+            final int cell = BitBoard.unitCell(board.deadUnit(), k);
+            if (board.cells[cell] == 0) {
+                deadCells.add(toTuple(cell));
+            }
+        }
+    }
+
+    private void findConflicts(List<Tuple<Byte>> deadCells) {
+        for (int i = 0; i < BitBoard.CELLS; i++) {
+            final byte value = cells[i];
+            if (value == 0) {
+                continue;
+            }
+
+            for (int j = 0; j < BitBoard.CELLS; j++) {
+                if (i != j && cells[j] == value && isPeer(i, j)) {
+                    deadCells.add(toTuple(i));
+                    break;
+                }
+            }
+        }
+    }
+
+    // Also adds the empty cells which have no candidates left to the dead cells
+    private void fillCandidates(List<Tuple<Byte>> deadCells) {
+        for (int i = 0; i < BitBoard.CELLS; i++) {
+            final byte value = board.cells[i];
+            if (value != 0) {
+                candidates[i] = 1 << (value - 1);
+                continue;
+            }
+
+            candidates[i] = board.candidates(i);
+            if (candidates[i] == 0) {
+                deadCells.add(toTuple(i));
+            }
+        }
+    }
+
+    private boolean agreesWithLastSolution() {
+        for (int i = 0; i < BitBoard.CELLS; i++) {
+            if (cells[i] != 0 && cells[i] != lastSolution[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static void checkPosition(byte row, byte col) {
+        if (row < 0 || row >= GRID_BOUNDARY || col < 0 || col >= GRID_BOUNDARY) {
+            throw new IllegalArgumentException("The row and column must be between 0 and " + (GRID_BOUNDARY - 1));
+        }
+    }
+
+    private static void checkValue(byte value) {
+        if (value < 0 || value > GRID_BOUNDARY) {
+            throw new IllegalArgumentException("The value must be between 0 and " + GRID_BOUNDARY);
+        }
+    }
+
+    private static boolean isPeer(int a, int b) {
+        return a / GRID_BOUNDARY == b / GRID_BOUNDARY || a % GRID_BOUNDARY == b % GRID_BOUNDARY
+                || BitBoard.box(a) == BitBoard.box(b);
+    }
+
+    private static Tuple<Byte> toTuple(int cell) {
+        return new Tuple<>((byte) (cell / GRID_BOUNDARY), (byte) (cell % GRID_BOUNDARY));
+    }
+}
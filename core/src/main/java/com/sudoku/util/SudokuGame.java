@@ -0,0 +1,560 @@
+package com.sudoku.util;
+
+import com.copy.Copy;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeoutException;
+
+public class SudokuGame {
+    public enum Difficulty {
+        EASY,
+        MEDIUM,
+        HARD,
+        VERY_HARD,
+    }
+
+    private byte[][] grid;
+    private byte[][] solvedGrid;
+    private Tuple<Byte> lastPosition;
+    private byte solutionNum;
+    private boolean isSolved;
+
+    public static final byte GRID_BOUNDARY = 9;
+    public static final List<Byte> NUMBERS = new ArrayList<>(GRID_BOUNDARY);
+
+    static {
+        for (byte number = 1; number <= GRID_BOUNDARY; number++) {
+            NUMBERS.add(number);
+        }
+    }
+
+    public SudokuGame(Difficulty difficulty) {
+        generateNewGrid(difficulty);
+    }
+
+    /**
+     * By default, the Sudoku will be set to "Medium" difficulty.
+     */
+    public SudokuGame() {
+        this(Difficulty.MEDIUM);
+    }
+
+    public byte[][] getGrid() {
+        return grid;
+    }
+
+    private boolean checkIfSolved() {
+        for (byte i = 0; i < GRID_BOUNDARY; i++) {
+            for (byte j = 0; j < GRID_BOUNDARY; j++) {
+                if (grid[i][j] == 0) {
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+
+    public boolean isSolved() {
+        if (!isSolved) {
+            isSolved = checkIfSolved();
+        }
+
+        return isSolved;
+    }
+
+    public byte[][] getCopyOfGrid() {
+        return getCopyOfGrid(grid);
+    }
+
+    private byte[][] getCopyOfGrid(byte[][] grid) {
+        return Copy.deepCopy(grid);
+    }
+
+    public Tuple<Byte> findEmpty(byte[][] grid, Tuple<Byte> lastPosition) {
+        for (byte i = lastPosition.row(); i < GRID_BOUNDARY; i++) {
+            for (byte j = i == lastPosition.row() ? lastPosition.col() : 0; j < GRID_BOUNDARY; j++) {
+                if (grid[i][j] == 0) {
+                    return new Tuple<>(i, j); // row, col
+                }
+            }
+        }
+        return null;
+    }
+
+    public boolean isValid(byte[][] grid, byte number, Tuple<Byte> position) {
+        // Check row
+        for (byte i = 0; i < GRID_BOUNDARY; i++) {
+            if (position.col() != i && grid[position.row()][i] == number) {
+                return false;
+            }
+        }
+
+        // Check column
+        for (byte i = 0; i < GRID_BOUNDARY; i++) {
+            if (position.row() != i && grid[i][position.col()] == number) {
+                return false;
+            }
+        }
+
+        // Check cubes
+        final int boxX = position.col() / 3;
+        final int boxY = position.row() / 3;
+
+        final int iStart = boxY * 3;
+        final int iEnd = iStart + 3;
+        final int jStart = boxX * 3;
+        final int jEnd = jStart + 3;
+
+        for (int i = iStart; i < iEnd; i++) {
+            for (int j = jStart; j < jEnd; j++) {
+                if (i != position.row() && j != position.col() && grid[i][j] == number) {
+                    return false;
+                }
+            }
+        }
+
+        return true;
+    }
+
+    public boolean solve() {
+        resetLastPosition();
+        return solve(grid);
+    }
+
+    public boolean isValueValid(byte val, byte col, byte row) {
+        if (solvedGrid == null) {
+            storeSolvedGrid();
+        }
+
+        return solvedGrid[row][col] == val;
+    }
+
+    private void storeSolvedGrid() {
+        solvedGrid = getCopyOfGrid();
+        solveGrid(solvedGrid);
+    }
+
+    public byte getSolutionCell(byte row, byte col) {
+        return solvedGrid[row][col];
+    }
+
+    private void solveGrid(byte[][] grid) {
+        resetLastPosition();
+        solve(grid);
+    }
+
+    private boolean solve(byte[][] grid) {
+        // Base case: If all positions are filled up, the grid must have been solved
+        final Tuple<Byte> position = findEmpty(grid, lastPosition);
+        if (position == null) {
+            return true;
+        }
+
+        lastPosition = position;
+        for (byte num : NUMBERS) {
+            if (isValid(grid, num, position)) {
+                grid[position.row()][position.col()] = num;
+
+                if (solve(grid)) {
+                    return true;
+                }
+
+                // If it wasn't solved it backtracks to here
+                grid[position.row()][position.col()] = 0;
+                lastPosition = position;
+            }
+        }
+
+        return false;
+    }
+
+    private void resetLastPosition() {
+        lastPosition = new Tuple<>((byte) 0, (byte) 0);
+    }
+
+    public void generateNewGrid(Difficulty difficulty) {
+        isSolved = false;
+        resetLastPosition();
+
+        // All values are automatically initialised to 0
+        final byte[][] newGrid = new byte[GRID_BOUNDARY][GRID_BOUNDARY];
+
+        // This shuffle will be used to generate the grid at random
+        Collections.shuffle(NUMBERS);
+        solve(newGrid);
+
+        final byte size = GRID_BOUNDARY * GRID_BOUNDARY;
+        final List<Integer> arrayPositions = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            arrayPositions.add(i);
+        }
+        Collections.shuffle(arrayPositions);
+
+        // We can increase/decrease the amount of iterations to increase/decrease difficulty
+        final byte limit = (byte) switch (difficulty) {
+            case EASY -> 30;
+            case MEDIUM -> 45;
+            case HARD -> 60;
+            default -> size;
+        };
+
+        for (byte i = 0; i < limit; i++) {
+            final int pos = arrayPositions.get(i);
+            final int row = pos / GRID_BOUNDARY;
+            final int col = pos % GRID_BOUNDARY;
+
+            final byte value = newGrid[row][col];
+            newGrid[row][col] = 0;
+
+            if (!isUnique(newGrid)) {
+                newGrid[row][col] = value;
+            }
+        }
+
+        grid = newGrid;
+        storeSolvedGrid();
+    }
+
+    /**
+     * Generates a grid with a unique solution and at most {@code targetClues} clues,
+     * by running several randomised removal searches in parallel and keeping the first one to reach the target.
+     *
+     * @return false if no grid was found within {@code timeoutMillis}, in which case the current grid is kept
+     */
+    public boolean generateNewGrid(int targetClues, long timeoutMillis) throws InterruptedException {
+        final byte[] puzzle = new ClueTargetGenerator(targetClues).generate(timeoutMillis);
+        if (puzzle == null) {
+            return false;
+        }
+
+        isSolved = false;
+        final BitBoard board = new BitBoard();
+        board.load(puzzle);
+
+        final byte[][] newGrid = new byte[GRID_BOUNDARY][GRID_BOUNDARY];
+        board.store(newGrid);
+
+        // These puzzles can be very slow for the plain backtracking solver, so the bitmask solver is used instead
+        final byte[][] newSolvedGrid = new byte[GRID_BOUNDARY][GRID_BOUNDARY];
+        board.countSolutions(1);
+        board.store(newSolvedGrid);
+
+        grid = newGrid;
+        solvedGrid = newSolvedGrid;
+        return true;
+    }
+
+    private boolean isUnique(byte[][] grid) {
+        resetLastPosition();
+        solutionNum = 0;
+
+        hasUniqueSolution(getCopyOfGrid(grid));
+
+        return solutionNum == 1;
+    }
+
+    // Return value is only used to exit the recursion
+    private boolean hasUniqueSolution(byte[][] grid) {
+        // Base case: If all positions are filled up, the grid must have been solved
+        final Tuple<Byte> position = findEmpty(grid, lastPosition);
+        if (position == null) {
+            solutionNum++;
+            return true;
+        }
+
+        lastPosition = position;
+        for (byte num : NUMBERS) {
+            if (isValid(grid, num, position)) {
+                grid[position.row()][position.col()] = num;
+
+                if (hasUniqueSolution(grid) && solutionNum > 1) {
+                    return true;
+                }
+
+                // If it wasn't solved it backtracks to here
+                grid[position.row()][position.col()] = 0;
+                lastPosition = position;
+            }
+        }
+
+        return false;
+    }
+
+    @Override
+    public String toString() {
+        final StringBuilder sb = new StringBuilder();
+
+        final byte limit = GRID_BOUNDARY - 1;
+        for (byte i = 0; i < limit; i++) {
+
+            appendFirstEight(sb, i);
+
+            final byte boardValue = grid[i][limit];
+            sb.append(boardValue == 0 ? "?" : boardValue).append('\n');
+
+            if ((i + 1) % 3 == 0) {
+                sb.append("- - - - - - - - - - - - - -").append('\n');
+            }
+        }
+        appendFirstEight(sb, limit);
+
+        final byte boardValue = grid[limit][limit];
+        return sb.append(boardValue == 0 ? "?" : boardValue).toString();
+    }
+
+    private void appendFirstEight(StringBuilder sb, byte row) {
+        for (byte j = 0; j < 8; j++) {
+            final byte boardValue = grid[row][j];
+            sb.append(boardValue == 0 ? "?" : boardValue).append((j + 1) % 3 == 0 ? " | " : "  ");
+        }
+    }
+
+    private static byte[][] toGrid(String cells) {
+        final byte[][] grid = new byte[GRID_BOUNDARY][GRID_BOUNDARY];
+        for (int i = 0; i < cells.length(); i++) {
+            grid[i / GRID_BOUNDARY][i % GRID_BOUNDARY] = (byte) (cells.charAt(i) - '0');
+        }
+        return grid;
+    }
+
+    public static void main(String[] args) {
+        final SudokuGame sudokuGame = new SudokuGame();
+        System.out.println(sudokuGame);
+        System.out.println();
+
+        // Testing that the copy is deep (not shallow)
+        final byte[][] copy = sudokuGame.getCopyOfGrid();
+        copy[0][0] = 78;
+
+        System.out.println(sudokuGame.grid[0][0] == 78);
+        System.out.println();
+
+        // Testing the solve method
+        if (sudokuGame.solve()) {
+            System.out.println(sudokuGame);
+        } else {
+            System.out.println("No possible solution???");
+        }
+
+        // Testing the isUnique method (should return false here)
+        System.out.println();
+        System.out.println(sudokuGame.isUnique(new byte[][]{
+                {2, 9, 5, 7, 4, 3, 8, 6, 1},
+                {4, 3, 1, 8, 6, 5, 9, 0, 0},
+                {8, 7, 6, 1, 9, 2, 5, 4, 3},
+                {3, 8, 7, 4, 5, 9, 2, 1, 6},
+                {6, 1, 2, 3, 8, 7, 4, 9, 5},
+                {5, 4, 9, 2, 1, 6, 7, 3, 8},
+                {7, 6, 3, 5, 3, 4, 1, 8, 9},
+                {9, 2, 8, 6, 7, 1, 3, 5, 4},
+                {1, 5, 4, 9, 3, 8, 6, 0, 0}
+        }));
+
+        // Testing the random generation
+        sudokuGame.generateNewGrid(Difficulty.VERY_HARD);
+        System.out.println();
+        System.out.println(sudokuGame);
+
+        // Testing if the generated sudoku has a unique solution
+        System.out.println();
+        System.out.println(sudokuGame.isUnique(sudokuGame.grid));
+
+        // Testing that the batch solver agrees with the solve method
+        final int batchSize = 3;
+        final byte[] puzzles = new byte[batchSize * BatchSolver.PUZZLE_SIZE];
+        final byte[][] expected = new byte[batchSize][];
+        for (int i = 0; i < batchSize; i++) {
+            sudokuGame.generateNewGrid(Difficulty.HARD);
+            for (byte row = 0; row < GRID_BOUNDARY; row++) {
+                System.arraycopy(sudokuGame.grid[row], 0, puzzles, i * BatchSolver.PUZZLE_SIZE + row * GRID_BOUNDARY,
+                        GRID_BOUNDARY);
+            }
+            sudokuGame.solve();
+            expected[i] = new byte[BatchSolver.PUZZLE_SIZE];
+            for (byte row = 0; row < GRID_BOUNDARY; row++) {
+                System.arraycopy(sudokuGame.grid[row], 0, expected[i], row * GRID_BOUNDARY, GRID_BOUNDARY);
+            }
+        }
+        // The second puzzle is made invalid with two 1s on the first row
+        puzzles[BatchSolver.PUZZLE_SIZE] = 1;
+        puzzles[BatchSolver.PUZZLE_SIZE + 1] = 1;
+
+        final byte[] solutions = new byte[puzzles.length];
+        System.out.println();
+        System.out.println(BatchSolver.solveAll(puzzles, solutions) == batchSize - 1);
+        System.out.println(Arrays.equals(solutions, 0, BatchSolver.PUZZLE_SIZE, expected[0], 0, BatchSolver.PUZZLE_SIZE));
+        System.out.println(Arrays.equals(solutions, BatchSolver.PUZZLE_SIZE, 2 * BatchSolver.PUZZLE_SIZE,
+                new byte[BatchSolver.PUZZLE_SIZE], 0, BatchSolver.PUZZLE_SIZE));
+        System.out.println(Arrays.equals(solutions, 2 * BatchSolver.PUZZLE_SIZE, puzzles.length,
+                expected[2], 0, BatchSolver.PUZZLE_SIZE));
+
+        // Testing the batch solution counts (should be 1, 0 and 1), and that an emptied puzzle has many solutions
+        final int[] counts = new int[batchSize];
+        BatchSolver.countAll(puzzles, counts, 2);
+        System.out.println(Arrays.toString(counts));
+        BatchSolver.countAll(new byte[BatchSolver.PUZZLE_SIZE], counts, 2);
+        System.out.println(counts[0] == 2);
+
+        // Testing that only the bytes after the buffer's position are read
+        final ByteBuffer withHeader = ByteBuffer.allocate(1 + BatchSolver.PUZZLE_SIZE);
+        withHeader.put((byte) 42).put(puzzles, 0, BatchSolver.PUZZLE_SIZE).position(1);
+        final ByteBuffer solution = ByteBuffer.allocate(BatchSolver.PUZZLE_SIZE);
+        System.out.println(BatchSolver.solveAll(withHeader, solution) == 1
+                && Arrays.equals(solution.array(), expected[0]));
+
+        // Testing the target clue count generator: at most 24 clues, a unique solution and a matching solved grid
+        try {
+            System.out.println();
+            System.out.println(sudokuGame.generateNewGrid(24, 10_000));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return;
+        }
+        final byte[] generated = new byte[BatchSolver.PUZZLE_SIZE];
+        int clues = 0;
+        boolean matchesSolvedGrid = true;
+        for (byte row = 0; row < GRID_BOUNDARY; row++) {
+            for (byte col = 0; col < GRID_BOUNDARY; col++) {
+                final byte value = sudokuGame.grid[row][col];
+                generated[row * GRID_BOUNDARY + col] = value;
+                if (value != 0) {
+                    clues++;
+                    matchesSolvedGrid &= sudokuGame.solvedGrid[row][col] == value;
+                }
+            }
+        }
+        System.out.println(clues <= 24);
+        BatchSolver.countAll(generated, counts, 2);
+        System.out.println(counts[0] == 1);
+        final byte[] generatedSolution = new byte[BatchSolver.PUZZLE_SIZE];
+        BatchSolver.solveAll(generated, generatedSolution);
+        for (byte row = 0; row < GRID_BOUNDARY; row++) {
+            matchesSolvedGrid &= Arrays.equals(sudokuGame.solvedGrid[row], 0, GRID_BOUNDARY,
+                    generatedSolution, row * GRID_BOUNDARY, (row + 1) * GRID_BOUNDARY);
+        }
+        System.out.println(matchesSolvedGrid);
+
+        // Testing the portfolio solver on a hard puzzle, a board with clashes and an unsolvable board
+        final byte[][] hardPuzzle = toGrid(
+                "800000000003600000070090200050007000000045700000100030001000068008500010090000400");
+        final byte[][] clashing = new byte[GRID_BOUNDARY][GRID_BOUNDARY];
+        clashing[0][0] = 1;
+        clashing[0][8] = 1;
+        final byte[][] unsolvable = toGrid(
+                "000000010400000000020000000000050407008000300001090000300400200050100000000808000");
+        final PortfolioSolver.Config slow = new PortfolioSolver.Config(PortfolioSolver.CellOrder.FEWEST_CANDIDATES,
+                PortfolioSolver.ValueOrder.ASCENDING, false, 0);
+        final PortfolioSolver.Config fast = new PortfolioSolver.Config(PortfolioSolver.CellOrder.FEWEST_CANDIDATES,
+                PortfolioSolver.ValueOrder.ASCENDING, true, 0);
+        try (PortfolioSolver portfolio = new PortfolioSolver(PortfolioSolver.DEFAULT_CONFIGS, 3);
+             PortfolioSolver solo = new PortfolioSolver(List.of(slow, fast), 1)) {
+            System.out.println();
+            final byte[][] solvedHard = Copy.deepCopy(hardPuzzle);
+            System.out.println(portfolio.solve(solvedHard).solved());
+            boolean keepsClues = true;
+            final byte[] solvedCells = new byte[BatchSolver.PUZZLE_SIZE];
+            for (byte row = 0; row < GRID_BOUNDARY; row++) {
+                for (byte col = 0; col < GRID_BOUNDARY; col++) {
+                    keepsClues &= hardPuzzle[row][col] == 0 || hardPuzzle[row][col] == solvedHard[row][col];
+                    solvedCells[row * GRID_BOUNDARY + col] = solvedHard[row][col];
+                }
+            }
+            // A full grid only counts as having a solution if it follows the rules
+            BatchSolver.countAll(solvedCells, counts, 2);
+            System.out.println(keepsClues && counts[0] == 1);
+            System.out.println(!portfolio.solve(clashing).solved());
+            System.out.println(!portfolio.solve(unsolvable).solved());
+
+            // Testing that a timed out solve leaves the grid alone
+            final byte[][] timedOut = Copy.deepCopy(hardPuzzle);
+            try {
+                solo.solve(timedOut, 0);
+                System.out.println(false);
+            } catch (TimeoutException e) {
+                System.out.println(Arrays.deepEquals(timedOut, hardPuzzle));
+            }
+
+            // Testing that with one thread the slow configuration, tried first, loses its place to the fast one,
+            // so that only the occasional exploring solve still uses it
+            int fastRuns = 0;
+            for (int i = 0; i < 64; i++) {
+                if (solo.solve(Copy.deepCopy(hardPuzzle)).winner().equals(fast) && i >= 48) {
+                    fastRuns++;
+                }
+            }
+            System.out.println(fastRuns >= 15);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return;
+        }
+
+        // Testing the solvability checker: a clash is reported as dead cells
+        final SolvabilityChecker checker = new SolvabilityChecker(clashing);
+        System.out.println();
+        System.out.println(checker.getStatus().solvability() == SolvabilityChecker.Solvability.UNSOLVABLE
+                && checker.getStatus().deadCells().containsAll(List.of(new Tuple<>((byte) 0, (byte) 0),
+                new Tuple<>((byte) 0, (byte) 8))));
+
+        // An empty cell with no candidates left: the last row holds 1-8 and the last column a 9
+        final byte[][] noCandidates = new byte[GRID_BOUNDARY][GRID_BOUNDARY];
+        for (byte col = 0; col < GRID_BOUNDARY - 1; col++) {
+            noCandidates[GRID_BOUNDARY - 1][col] = (byte) (col + 1);
+        }
+        noCandidates[0][GRID_BOUNDARY - 1] = 9;
+        System.out.println(new SolvabilityChecker(noCandidates).getStatus().deadCells()
+                .contains(new Tuple<>((byte) (GRID_BOUNDARY - 1), (byte) (GRID_BOUNDARY - 1))));
+
+        // A 1 with nowhere to go in the first row still points at that row
+        final byte[][] noRoom = new byte[GRID_BOUNDARY][GRID_BOUNDARY];
+        noRoom[1][0] = 1;
+        noRoom[2][4] = 1;
+        noRoom[4][8] = 1;
+        noRoom[0][6] = 2;
+        noRoom[0][7] = 3;
+        final SolvabilityChecker.Status noRoomStatus = new SolvabilityChecker(noRoom).getStatus();
+        System.out.println(noRoomStatus.solvability() == SolvabilityChecker.Solvability.UNSOLVABLE
+                && noRoomStatus.deadCells().contains(new Tuple<>((byte) 0, (byte) 0)));
+
+        // A board with many solutions is solvable, and stays so after an edit that contradicts the last solution
+        final SolvabilityChecker editor = new SolvabilityChecker(new byte[GRID_BOUNDARY][GRID_BOUNDARY]);
+        System.out.println(editor.getStatus().solvability() == SolvabilityChecker.Solvability.SOLVABLE
+                && editor.set((byte) 0, (byte) 0, (byte) 1).solvability() == SolvabilityChecker.Solvability.SOLVABLE
+                && editor.set((byte) 0, (byte) 0, (byte) 2).solvability() == SolvabilityChecker.Solvability.SOLVABLE);
+
+        // Entering an unsolvable board clue by clue, every answer must match the batch solver's
+        editor.set((byte) 0, (byte) 0, (byte) 0);
+        boolean matchesBatchSolver = true;
+        final byte[] entered = new byte[BatchSolver.PUZZLE_SIZE];
+        for (byte row = 0; row < GRID_BOUNDARY; row++) {
+            for (byte col = 0; col < GRID_BOUNDARY; col++) {
+                if (unsolvable[row][col] == 0) {
+                    continue;
+                }
+
+                entered[row * GRID_BOUNDARY + col] = unsolvable[row][col];
+                final SolvabilityChecker.Status status = editor.set(row, col, unsolvable[row][col]);
+                BatchSolver.countAll(entered, counts, 1);
+                if (status.solvability() != SolvabilityChecker.Solvability.UNKNOWN) {
+                    matchesBatchSolver &= (counts[0] == 1) == (status.solvability()
+                            == SolvabilityChecker.Solvability.SOLVABLE);
+                }
+            }
+        }
+        System.out.println(matchesBatchSolver
+                && editor.getStatus().solvability() == SolvabilityChecker.Solvability.UNSOLVABLE
+                && !editor.getStatus().deadCells().isEmpty());
+
+        // Testing that only a search with a random value order may restart
+        try {
+            new PortfolioSolver.Config(PortfolioSolver.CellOrder.ROW_MAJOR, PortfolioSolver.ValueOrder.ASCENDING,
+                    false, 100);
+            System.out.println(false);
+        } catch (IllegalArgumentException e) {
+            System.out.println(true);
+        }
+    }
+}
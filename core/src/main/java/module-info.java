@@ -0,0 +1,4 @@
+module com.sudoku.core {
+    exports com.sudoku.util;
+    exports com.copy;
+}
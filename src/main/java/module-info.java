@@ -1,6 +1,7 @@
 module com.sudoku.visual {
+    requires com.sudoku.core;
     requires javafx.controls;
 
 
     exports com.sudoku.visual;
-}
\ No newline at end of file
+}